@@ -0,0 +1,108 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/** Provides streaming type adapters for the descriptor classes, so that
+ * Gson does not need to fall back to its reflective adapters. Register with
+ * GsonBuilder.registerTypeAdapterFactory().
+ * 
+ * @author Ken Duck
+ *
+ */
+public class DescriptorTypeAdapterFactory implements TypeAdapterFactory {
+
+	private final VulnerabilityDescriptor.GsonAdapter vulnerabilityAdapter = new VulnerabilityDescriptor.GsonAdapter();
+	private final PackageDescriptor.GsonAdapter packageAdapter = new PackageDescriptor.GsonAdapter(vulnerabilityAdapter);
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.google.gson.TypeAdapterFactory#create(com.google.gson.Gson, com.google.gson.reflect.TypeToken)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> rawType = type.getRawType();
+		if (rawType == PackageDescriptor.class) {
+			return (TypeAdapter<T>) packageAdapter;
+		}
+		if (rawType == VulnerabilityDescriptor.class) {
+			return (TypeAdapter<T>) vulnerabilityAdapter;
+		}
+		return null;
+	}
+
+	/** Read a string, accepting the same tokens as Gson's string adapter.
+	 * 
+	 * @param in The reader, positioned at a non-null value
+	 * @return The string
+	 * @throws IOException On malformed JSON
+	 */
+	static String readString(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.BOOLEAN) {
+			return Boolean.toString(in.nextBoolean());
+		}
+		return in.nextString();
+	}
+
+	/** Read a long, failing the same way as Gson's long adapter.
+	 * 
+	 * @param in The reader, positioned at a non-null value
+	 * @return The value
+	 * @throws IOException On malformed JSON
+	 */
+	static long readLong(JsonReader in) throws IOException {
+		try {
+			return in.nextLong();
+		} catch (NumberFormatException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	/** Read an int, failing the same way as Gson's integer adapter.
+	 * 
+	 * @param in The reader, positioned at a non-null value
+	 * @return The value
+	 * @throws IOException On malformed JSON
+	 */
+	static int readInt(JsonReader in) throws IOException {
+		try {
+			return in.nextInt();
+		} catch (NumberFormatException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+}
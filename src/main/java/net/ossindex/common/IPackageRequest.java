@@ -48,6 +48,17 @@ public interface IPackageRequest {
 	 */
 	public PackageDescriptor add(String pm, String groupId, String artifactId, String version);
 
+	/** Set the priority of the request. Interactive requests are dispatched
+	 * ahead of queued bulk work. Requests with more packages than the
+	 * priority's chunk size are sent as several server requests: BULK splits
+	 * into chunks of 128 packages, NORMAL into chunks of 1024, and
+	 * INTERACTIVE is never split. Large scans should use BULK so that
+	 * interactive lookups can get in between chunks. Defaults to NORMAL.
+	 * 
+	 * @param priority The request priority
+	 */
+	public void setPriority(RequestPriority priority);
+
 	/**
 	 * Execute the request.
 	 * 
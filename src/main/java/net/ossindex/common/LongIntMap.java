@@ -0,0 +1,103 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+/** Minimal open addressing hash map from long keys to int values, which
+ * avoids boxing the keys. The capacity is fixed when the map is created.
+ * 
+ * @author Ken Duck
+ *
+ */
+class LongIntMap {
+
+	private final long[] keys;
+	private final int[] values;
+	private final boolean[] used;
+	private final int mask;
+	private final int maxSize;
+	private int size;
+
+	/** Create a map
+	 * 
+	 * @param maxSize Maximum number of entries the map will hold
+	 */
+	LongIntMap(int maxSize) {
+		int capacity = 2;
+		while (capacity < maxSize * 2) {
+			capacity <<= 1;
+		}
+		keys = new long[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+		this.maxSize = maxSize;
+	}
+
+	/** Add or replace a mapping
+	 * 
+	 * @param key The key
+	 * @param value The value
+	 */
+	void put(long key, int value) {
+		int slot = slot(key);
+		if (!used[slot]) {
+			if (size == maxSize) {
+				throw new IllegalStateException("Map is full");
+			}
+			used[slot] = true;
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+	}
+
+	/** Get the value for a key
+	 * 
+	 * @param key The key
+	 * @param missing Value to return if the key is not present
+	 * @return The value for the key
+	 */
+	int get(long key, int missing) {
+		int slot = slot(key);
+		if (used[slot]) {
+			return values[slot];
+		}
+		return missing;
+	}
+
+	/**
+	 * Find the slot holding the key, or the empty slot where it belongs.
+	 */
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int)(hash ^ (hash >>> 32)) & mask;
+		while (used[slot] && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+}
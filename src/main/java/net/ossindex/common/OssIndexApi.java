@@ -31,6 +31,12 @@ import net.ossindex.common.request.PackageRequest;
 /** Main class for access of the OSS Index API. Use this to create request
  * objects.
  * 
+ * All requests in the JVM share a limit on the number of server requests in
+ * flight at once, which defaults to 4. Additional requests wait for a slot
+ * according to their priority (see {@link RequestPriority}). The limit can
+ * be changed with the ossindex.maxConcurrentRequests system property, which
+ * is read when the first request is created.
+ * 
  * @author Ken Duck
  *
  */
@@ -44,4 +50,15 @@ public class OssIndexApi {
 	public static IPackageRequest createPackageRequest() {
 		return new PackageRequest();
 	}
+
+	/**
+	 * Create a package request object that uses the given transport. A
+	 * single transport may be shared by many requests.
+	 * 
+	 * @param transport Transport used to communicate with the server
+	 * @return The new package request
+	 */
+	public static IPackageRequest createPackageRequest(ITransport transport) {
+		return new PackageRequest(transport);
+	}
 }
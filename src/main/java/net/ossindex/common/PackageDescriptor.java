@@ -26,9 +26,14 @@
  */
 package net.ossindex.common;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 /** Represents an OSS Index package.
  * 
@@ -83,6 +88,17 @@ public class PackageDescriptor {
 		return sb.toString();
 	}
 
+	/**
+	 * Get the package manager name
+	 * @return the package manager name
+	 */
+	public String getPm() {
+		if (pm != null) {
+			return pm;
+		}
+		return "";
+	}
+
 	/**
 	 * Get the group ID
 	 * @return the group ID
@@ -197,4 +213,100 @@ public class PackageDescriptor {
 		}
 		return false;
 	}
+
+	/** Streaming Gson adapter, which avoids the cost of Gson's reflective
+	 * adapter. Produces the same JSON as the reflective adapter.
+	 * 
+	 * @see DescriptorTypeAdapterFactory
+	 */
+	static class GsonAdapter extends TypeAdapter<PackageDescriptor> {
+
+		private final VulnerabilityDescriptor.GsonAdapter vulnerabilityAdapter;
+
+		GsonAdapter(VulnerabilityDescriptor.GsonAdapter vulnerabilityAdapter) {
+			this.vulnerabilityAdapter = vulnerabilityAdapter;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+		 */
+		@Override
+		public void write(JsonWriter out, PackageDescriptor pkg) throws IOException {
+			if (pkg == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("id").value(pkg.id);
+			out.name("pm").value(pkg.pm);
+			out.name("name").value(pkg.name);
+			out.name("version").value(pkg.version);
+			out.name("group").value(pkg.group);
+			out.name("vulnerability-total").value(pkg.vulnerabilityTotal);
+			out.name("vulnerability-matches").value(pkg.vulnerabilityMatches);
+			out.name("vulnerabilities");
+			if (pkg.vulnerabilities == null) {
+				out.nullValue();
+			} else {
+				out.beginArray();
+				for (VulnerabilityDescriptor vuln : pkg.vulnerabilities) {
+					vulnerabilityAdapter.write(out, vuln);
+				}
+				out.endArray();
+			}
+			out.endObject();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+		 */
+		@Override
+		public PackageDescriptor read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			PackageDescriptor pkg = new PackageDescriptor(null, null, null, null);
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue;
+				}
+				switch (name) {
+				case "id":
+					pkg.id = DescriptorTypeAdapterFactory.readLong(in);
+					break;
+				case "pm":
+					pkg.pm = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "name":
+					pkg.name = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "version":
+					pkg.version = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "group":
+					pkg.group = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "vulnerability-total":
+					pkg.vulnerabilityTotal = DescriptorTypeAdapterFactory.readInt(in);
+					break;
+				case "vulnerability-matches":
+					pkg.vulnerabilityMatches = DescriptorTypeAdapterFactory.readInt(in);
+					break;
+				case "vulnerabilities":
+					pkg.vulnerabilities = vulnerabilityAdapter.readList(in);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return pkg;
+		}
+	}
 }
@@ -0,0 +1,79 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+/** Priority lanes for requests sent to the OSS Index server. Requests are
+ * dispatched using weighted fair scheduling, so a small interactive lookup
+ * does not need to wait behind a large bulk scan.
+ * 
+ * @author Ken Duck
+ *
+ */
+public enum RequestPriority {
+	/**
+	 * Small lookups that a user is actively waiting on (eg. from an IDE)
+	 */
+	INTERACTIVE(16, 0),
+
+	/**
+	 * Default priority. Very large requests are split into chunks so they
+	 * do not hold a dispatch slot for their whole duration.
+	 */
+	NORMAL(4, 1024),
+
+	/**
+	 * Large background scans. These are split into chunks which are
+	 * dispatched separately, so higher priority requests can get in between.
+	 */
+	BULK(1, 128);
+
+	private final int weight;
+	private final int chunkSize;
+
+	private RequestPriority(int weight, int chunkSize) {
+		this.weight = weight;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Get the relative share of dispatch slots this priority receives when
+	 * several lanes are waiting.
+	 * @return The scheduling weight
+	 */
+	public int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Get the maximum number of packages sent to the server in a single
+	 * request at this priority.
+	 * @return The chunk size, or 0 if requests are not split
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+}
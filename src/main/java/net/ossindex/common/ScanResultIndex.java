@@ -0,0 +1,360 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/** Read-only index over the results of a package request, for answering
+ * repeated queries without walking every package. Vulnerabilities can be
+ * looked up by OSS Index ID or CVE in constant time, and by published or
+ * updated time range in logarithmic time.
+ * 
+ * A vulnerability reported for several packages is indexed once, using the
+ * first descriptor seen for its ID. Several vulnerabilities with different
+ * IDs may share a CVE, since OSS Index records are per package.
+ * 
+ * Vulnerabilities without an OSS Index ID (parsed as 0) cannot be merged
+ * reliably, so each one is kept as a separate entry. They are included in
+ * the CVE, time and package manager lookups, but not the ID lookups.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class ScanResultIndex {
+
+	/**
+	 * ID of vulnerabilities that arrived without one
+	 */
+	private static final long NO_ID = 0;
+
+	/**
+	 * Unique vulnerabilities, in the order they were first seen
+	 */
+	private final List<VulnerabilityDescriptor> vulnerabilities = new ArrayList<VulnerabilityDescriptor>();
+
+	/**
+	 * Packages affected by each entry in vulnerabilities
+	 */
+	private final List<List<PackageDescriptor>> affected = new ArrayList<List<PackageDescriptor>>();
+
+	private final LongIntMap byId;
+	private final Map<String, int[]> byCve = new HashMap<String, int[]>();
+
+	private final Map<String, List<PackageDescriptor>> packagesByPm = new HashMap<String, List<PackageDescriptor>>();
+	private final Map<String, List<VulnerabilityDescriptor>> vulnerabilitiesByPm = new HashMap<String, List<VulnerabilityDescriptor>>();
+
+	/**
+	 * Sorted timestamps, and the matching vulnerability indexes
+	 */
+	private final long[] publishedTimes;
+	private final int[] publishedOrder;
+	private final long[] updatedTimes;
+	private final int[] updatedOrder;
+
+	/** Build an index over the given request results. Null packages and
+	 * null vulnerability entries are ignored.
+	 * 
+	 * @param packages Packages returned by a package request
+	 */
+	public ScanResultIndex(Collection<PackageDescriptor> packages) {
+		int total = 0;
+		for (PackageDescriptor pkg : packages) {
+			if (pkg == null) {
+				continue;
+			}
+			List<VulnerabilityDescriptor> vulns = pkg.getVulnerabilities();
+			if (vulns != null) {
+				total += vulns.size();
+			}
+		}
+		byId = new LongIntMap(total);
+
+		Map<String, BitSet> pmVulns = new HashMap<String, BitSet>();
+		for (PackageDescriptor pkg : packages) {
+			if (pkg == null) {
+				continue;
+			}
+			String pm = pkg.getPm();
+			List<PackageDescriptor> pmPackages = packagesByPm.get(pm);
+			if (pmPackages == null) {
+				pmPackages = new ArrayList<PackageDescriptor>();
+				packagesByPm.put(pm, pmPackages);
+				pmVulns.put(pm, new BitSet());
+			}
+			pmPackages.add(pkg);
+
+			List<VulnerabilityDescriptor> vulns = pkg.getVulnerabilities();
+			if (vulns == null) {
+				continue;
+			}
+			for (VulnerabilityDescriptor vuln : vulns) {
+				if (vuln == null) {
+					continue;
+				}
+				boolean hasId = vuln.getId() != NO_ID;
+				int index = hasId ? byId.get(vuln.getId(), -1) : -1;
+				if (index < 0) {
+					index = vulnerabilities.size();
+					vulnerabilities.add(vuln);
+					affected.add(new ArrayList<PackageDescriptor>());
+					if (hasId) {
+						byId.put(vuln.getId(), index);
+					}
+					if (vuln.getCve() != null) {
+						addCve(vuln.getCve(), index);
+					}
+				}
+				affected.get(index).add(pkg);
+				pmVulns.get(pm).set(index);
+			}
+		}
+
+		for (Map.Entry<String, BitSet> entry : pmVulns.entrySet()) {
+			BitSet bits = entry.getValue();
+			List<VulnerabilityDescriptor> vulns = new ArrayList<VulnerabilityDescriptor>(bits.cardinality());
+			for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+				vulns.add(vulnerabilities.get(i));
+			}
+			vulnerabilitiesByPm.put(entry.getKey(), vulns);
+		}
+
+		publishedOrder = sortBy(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return compareLongs(vulnerabilities.get(a).getPublished(), vulnerabilities.get(b).getPublished());
+			}
+		});
+		publishedTimes = new long[publishedOrder.length];
+		for (int i = 0; i < publishedOrder.length; i++) {
+			publishedTimes[i] = vulnerabilities.get(publishedOrder[i]).getPublished();
+		}
+
+		updatedOrder = sortBy(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return compareLongs(vulnerabilities.get(a).getUpdated(), vulnerabilities.get(b).getUpdated());
+			}
+		});
+		updatedTimes = new long[updatedOrder.length];
+		for (int i = 0; i < updatedOrder.length; i++) {
+			updatedTimes[i] = vulnerabilities.get(updatedOrder[i]).getUpdated();
+		}
+	}
+
+	/**
+	 * Get the number of unique vulnerabilities in the index
+	 * @return Number of vulnerabilities
+	 */
+	public int size() {
+		return vulnerabilities.size();
+	}
+
+	/**
+	 * Get all unique vulnerabilities in the index
+	 * @return The vulnerabilities
+	 */
+	public List<VulnerabilityDescriptor> getVulnerabilities() {
+		return Collections.unmodifiableList(vulnerabilities);
+	}
+
+	/** Get a vulnerability by its OSS Index ID
+	 * 
+	 * @param id The OSS Index ID
+	 * @return The vulnerability, or null if it is not in the results
+	 */
+	public VulnerabilityDescriptor getVulnerability(long id) {
+		int index = id == NO_ID ? -1 : byId.get(id, -1);
+		if (index < 0) {
+			return null;
+		}
+		return vulnerabilities.get(index);
+	}
+
+	/** Get the packages affected by a vulnerability
+	 * 
+	 * @param id The OSS Index ID of the vulnerability
+	 * @return The affected packages
+	 */
+	public List<PackageDescriptor> getAffectedPackages(long id) {
+		return getAffected(id == NO_ID ? -1 : byId.get(id, -1));
+	}
+
+	/** Get the vulnerabilities with the given CVE ID
+	 * 
+	 * @param cve The CVE ID (eg. CVE-2015-9251)
+	 * @return The vulnerabilities, in the order they were first seen
+	 */
+	public List<VulnerabilityDescriptor> getVulnerabilitiesByCve(String cve) {
+		int[] indexes = byCve.get(cve);
+		if (indexes == null) {
+			return Collections.emptyList();
+		}
+		List<VulnerabilityDescriptor> results = new ArrayList<VulnerabilityDescriptor>(indexes.length);
+		for (int index : indexes) {
+			results.add(vulnerabilities.get(index));
+		}
+		return results;
+	}
+
+	/** Get the packages affected by a CVE, across all vulnerabilities that
+	 * carry it. Each package is listed once.
+	 * 
+	 * @param cve The CVE ID (eg. CVE-2015-9251)
+	 * @return The affected packages
+	 */
+	public List<PackageDescriptor> getAffectedPackagesByCve(String cve) {
+		int[] indexes = byCve.get(cve);
+		if (indexes == null) {
+			return Collections.emptyList();
+		}
+		if (indexes.length == 1) {
+			return getAffected(indexes[0]);
+		}
+		LinkedHashSet<PackageDescriptor> results = new LinkedHashSet<PackageDescriptor>();
+		for (int index : indexes) {
+			results.addAll(affected.get(index));
+		}
+		return new ArrayList<PackageDescriptor>(results);
+	}
+
+	/** Get the vulnerabilities published within a time range, oldest first
+	 * 
+	 * @param from Start of the range in milliseconds, inclusive
+	 * @param to End of the range in milliseconds, exclusive
+	 * @return The matching vulnerabilities
+	 */
+	public List<VulnerabilityDescriptor> getPublishedBetween(long from, long to) {
+		return getRange(publishedTimes, publishedOrder, from, to);
+	}
+
+	/** Get the vulnerabilities updated within a time range, oldest first
+	 * 
+	 * @param from Start of the range in milliseconds, inclusive
+	 * @param to End of the range in milliseconds, exclusive
+	 * @return The matching vulnerabilities
+	 */
+	public List<VulnerabilityDescriptor> getUpdatedBetween(long from, long to) {
+		return getRange(updatedTimes, updatedOrder, from, to);
+	}
+
+	/** Get the packages belonging to a package manager
+	 * 
+	 * @param pm Name of the package manager
+	 * @return The packages
+	 */
+	public List<PackageDescriptor> getPackages(String pm) {
+		List<PackageDescriptor> pkgs = packagesByPm.get(pm);
+		if (pkgs == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(pkgs);
+	}
+
+	/** Get the unique vulnerabilities affecting packages of a package manager
+	 * 
+	 * @param pm Name of the package manager
+	 * @return The vulnerabilities
+	 */
+	public List<VulnerabilityDescriptor> getVulnerabilities(String pm) {
+		List<VulnerabilityDescriptor> vulns = vulnerabilitiesByPm.get(pm);
+		if (vulns == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(vulns);
+	}
+
+	private void addCve(String cve, int index) {
+		int[] indexes = byCve.get(cve);
+		if (indexes == null) {
+			indexes = new int[] {index};
+		} else {
+			indexes = Arrays.copyOf(indexes, indexes.length + 1);
+			indexes[indexes.length - 1] = index;
+		}
+		byCve.put(cve, indexes);
+	}
+
+	private List<PackageDescriptor> getAffected(int index) {
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(affected.get(index));
+	}
+
+	private List<VulnerabilityDescriptor> getRange(long[] times, int[] order, long from, long to) {
+		int start = lowerBound(times, from);
+		int end = lowerBound(times, to);
+		List<VulnerabilityDescriptor> results = new ArrayList<VulnerabilityDescriptor>(Math.max(0, end - start));
+		for (int i = start; i < end; i++) {
+			results.add(vulnerabilities.get(order[i]));
+		}
+		return results;
+	}
+
+	/**
+	 * Index of the first time that is not less than the given time
+	 */
+	private static int lowerBound(long[] times, long time) {
+		int low = 0;
+		int high = times.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times[mid] < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int[] sortBy(Comparator<Integer> comparator) {
+		Integer[] indexes = new Integer[vulnerabilities.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+		Arrays.sort(indexes, comparator);
+		int[] order = new int[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			order[i] = indexes[i];
+		}
+		return order;
+	}
+
+	private static int compareLongs(long a, long b) {
+		return a < b ? -1 : (a == b ? 0 : 1);
+	}
+}
@@ -26,6 +26,8 @@
  */
 package net.ossindex.common;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -33,6 +35,11 @@ import java.util.List;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a vulnerability from OSS Index
  * 
  * @author Ken Duck
@@ -133,6 +140,14 @@ public class VulnerabilityDescriptor {
 		return new Date(updated);
 	}
 	
+	/**
+	 * Get the CVE ID
+	 * @return the CVE ID, or null if this is not a CVE
+	 */
+	public String getCve() {
+		return cve;
+	}
+	
 	/**
 	 * Get the OSS Index URL through which to find more information
 	 * @return URL for finding more information
@@ -176,4 +191,129 @@ public class VulnerabilityDescriptor {
 		return sb.toString();
 	}
 
+	/** Streaming Gson adapter, which avoids the cost of Gson's reflective
+	 * adapter. Produces the same JSON as the reflective adapter.
+	 * 
+	 * @see DescriptorTypeAdapterFactory
+	 */
+	static class GsonAdapter extends TypeAdapter<VulnerabilityDescriptor> {
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+		 */
+		@Override
+		public void write(JsonWriter out, VulnerabilityDescriptor vuln) throws IOException {
+			if (vuln == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("id").value(vuln.id);
+			out.name("title").value(vuln.title);
+			out.name("description").value(vuln.description);
+			out.name("versions");
+			writeStringList(out, vuln.versions);
+			out.name("references");
+			writeStringList(out, vuln.references);
+			out.name("published").value(vuln.published);
+			out.name("updated").value(vuln.updated);
+			out.name("cve").value(vuln.cve);
+			out.endObject();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+		 */
+		@Override
+		public VulnerabilityDescriptor read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			VulnerabilityDescriptor vuln = new VulnerabilityDescriptor();
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue;
+				}
+				switch (name) {
+				case "id":
+					vuln.id = DescriptorTypeAdapterFactory.readLong(in);
+					break;
+				case "title":
+					vuln.title = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "description":
+					vuln.description = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				case "versions":
+					vuln.versions = readStringList(in);
+					break;
+				case "references":
+					vuln.references = readStringList(in);
+					break;
+				case "published":
+					vuln.published = DescriptorTypeAdapterFactory.readLong(in);
+					break;
+				case "updated":
+					vuln.updated = DescriptorTypeAdapterFactory.readLong(in);
+					break;
+				case "cve":
+					vuln.cve = DescriptorTypeAdapterFactory.readString(in);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return vuln;
+		}
+
+		/** Read a list of vulnerabilities
+		 * 
+		 * @param in The reader, positioned at a non-null array
+		 * @return The vulnerabilities
+		 * @throws IOException On malformed JSON
+		 */
+		List<VulnerabilityDescriptor> readList(JsonReader in) throws IOException {
+			List<VulnerabilityDescriptor> vulns = new ArrayList<VulnerabilityDescriptor>();
+			in.beginArray();
+			while (in.hasNext()) {
+				vulns.add(read(in));
+			}
+			in.endArray();
+			return vulns;
+		}
+
+		private static List<String> readStringList(JsonReader in) throws IOException {
+			List<String> list = new ArrayList<String>();
+			in.beginArray();
+			while (in.hasNext()) {
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					list.add(null);
+				} else {
+					list.add(DescriptorTypeAdapterFactory.readString(in));
+				}
+			}
+			in.endArray();
+			return list;
+		}
+
+		private static void writeStringList(JsonWriter out, List<String> list) throws IOException {
+			if (list == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginArray();
+			for (String value : list) {
+				out.value(value);
+			}
+			out.endArray();
+		}
+	}
 }
@@ -27,15 +27,10 @@
 package net.ossindex.common.request;
 
 import java.io.IOException;
-import java.net.ConnectException;
+import java.io.InterruptedIOException;
 
-import org.apache.http.ParseException;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import net.ossindex.common.ITransport;
+import net.ossindex.common.RequestPriority;
 
 /** Code that actually performs the requests to the server
  * 
@@ -46,7 +41,60 @@ public class AbstractOssIndexRequest {
 
 	private static final String BASE_URL = "https://ossindex.net/v2.0/";
 
-	/** Perform the request with the given URL and JSON data.
+	/**
+	 * Maximum number of requests in flight at once
+	 */
+	static final int MAX_CONCURRENT_REQUESTS = Math.max(1, Integer.getInteger("ossindex.maxConcurrentRequests", 4));
+
+	/**
+	 * Shared by all requests, so that the priority lanes are fair across the
+	 * whole client.
+	 */
+	private static final RequestScheduler SCHEDULER = new RequestScheduler(MAX_CONCURRENT_REQUESTS);
+
+	private final ITransport transport;
+
+	private RequestPriority priority = RequestPriority.NORMAL;
+
+	/**
+	 * Create a request that uses the default transport.
+	 */
+	public AbstractOssIndexRequest() {
+		this(new ApacheHttpTransport());
+	}
+
+	/** Create a request that uses the given transport.
+	 * 
+	 * @param transport Transport used to communicate with the server
+	 */
+	public AbstractOssIndexRequest(ITransport transport) {
+		if (transport == null) {
+			throw new IllegalArgumentException("transport may not be null");
+		}
+		this.transport = transport;
+	}
+
+	/** Set the priority used when dispatching this request.
+	 * 
+	 * @param priority The request priority
+	 */
+	public void setPriority(RequestPriority priority) {
+		if (priority == null) {
+			throw new IllegalArgumentException("priority may not be null");
+		}
+		this.priority = priority;
+	}
+
+	/** Get the priority used when dispatching this request.
+	 * 
+	 * @return The request priority
+	 */
+	public RequestPriority getPriority() {
+		return priority;
+	}
+
+	/** Perform the request with the given URL and JSON data. The request
+	 * waits for a dispatch slot according to its priority.
 	 * 
 	 * @param requestString Server request relative URL
 	 * @param data JSON data for the request
@@ -54,26 +102,17 @@ public class AbstractOssIndexRequest {
 	 * @throws IOException On query problems
 	 */
 	protected String performPostRequest(String requestString, String data) throws IOException {
-		HttpPost request = new HttpPost(getBaseUrl() + requestString);
-
-		String json = null;
-		CloseableHttpClient httpclient = HttpClients.custom()
-                    .useSystemProperties()
-                    .build();
 		try {
-			request.setEntity(new StringEntity(data));
-			CloseableHttpResponse response = httpClient.execute(request);
-			int code = response.getStatusLine().getStatusCode();
-			if(code < 200 || code > 299) {
-				throw new ConnectException(response.getStatusLine().getReasonPhrase() + " (" + code + ")");
-			}
-			json = EntityUtils.toString(response.getEntity(), "UTF-8");
-		} catch(ParseException e) {
-			throw new IOException(e);
+			SCHEDULER.acquire(priority);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to dispatch request");
+		}
+		try {
+			return transport.post(getBaseUrl() + requestString, data);
 		} finally {
-			httpClient.close();
+			SCHEDULER.release();
 		}
-		return json;
 	}
 
 	/** Get the base URL for requests
@@ -28,6 +28,7 @@ package net.ossindex.common.request;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -36,7 +37,9 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
+import net.ossindex.common.DescriptorTypeAdapterFactory;
 import net.ossindex.common.IPackageRequest;
+import net.ossindex.common.ITransport;
 import net.ossindex.common.PackageDescriptor;
 
 /** Perform a package request.
@@ -47,8 +50,32 @@ import net.ossindex.common.PackageDescriptor;
  *
  */
 public class PackageRequest extends AbstractOssIndexRequest implements IPackageRequest {
+	/**
+	 * Shared by all requests. Uses streaming adapters for the descriptors
+	 * instead of reflection.
+	 */
+	private static final Gson GSON = new GsonBuilder()
+			.disableHtmlEscaping()
+			.registerTypeAdapterFactory(new DescriptorTypeAdapterFactory())
+			.create();
+
+	private static final Type LIST_TYPE = new TypeToken<List<PackageDescriptor>>() {}.getType();
+
 	List<PackageDescriptor> packages = new LinkedList<PackageDescriptor>();
-	Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+	/**
+	 * Create a package request that uses the default transport.
+	 */
+	public PackageRequest() {
+	}
+
+	/** Create a package request that uses the given transport.
+	 * 
+	 * @param transport Transport used to communicate with the server
+	 */
+	public PackageRequest(ITransport transport) {
+		super(transport);
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -67,13 +94,47 @@ public class PackageRequest extends AbstractOssIndexRequest implements IPackageR
 	 */
 	@Override
 	public Collection<PackageDescriptor> run() throws IOException {
-		String data = gson.toJson(packages);
+		int chunkSize = getPriority().getChunkSize();
+		if (chunkSize <= 0 || packages.size() <= chunkSize) {
+			return runChunk(packages);
+		}
+
+		// Send the packages a chunk at a time, so that higher priority
+		// requests can be dispatched in between chunks.
+		List<PackageDescriptor> results = new ArrayList<PackageDescriptor>(packages.size());
+		List<PackageDescriptor> chunk = new ArrayList<PackageDescriptor>(chunkSize);
+		for (PackageDescriptor pkg : packages) {
+			chunk.add(pkg);
+			if (chunk.size() == chunkSize) {
+				addResults(results, runChunk(chunk));
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			addResults(results, runChunk(chunk));
+		}
+		return results;
+	}
+
+	/** Perform the OSS Index query for the given packages.
+	 * 
+	 * @param chunk Packages to query
+	 * @return The package results
+	 * @throws IOException On query problems
+	 */
+	private List<PackageDescriptor> runChunk(List<PackageDescriptor> chunk) throws IOException {
+		String data = GSON.toJson(chunk);
 		// Perform the OSS Index query
 		String response = this.performPostRequest("package", data);
 		
 		// Convert the results to Java objects
-		Type listType = new TypeToken<List<PackageDescriptor>>() {}.getType();
-		return gson.fromJson(response, listType);
+		return GSON.fromJson(response, LIST_TYPE);
+	}
+
+	private static void addResults(List<PackageDescriptor> results, List<PackageDescriptor> chunkResults) {
+		if (chunkResults != null) {
+			results.addAll(chunkResults);
+		}
 	}
 
 }
@@ -0,0 +1,88 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common.request;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+import net.ossindex.common.ITransport;
+
+/** Transport that shares a single Apache HttpClient and its pool of
+ * persistent connections between all requests, so that concurrent package
+ * requests reuse open connections instead of each paying for a new TCP and
+ * TLS handshake. Close the transport when it is no longer needed.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class PooledHttpTransport implements ITransport, Closeable {
+
+	private final CloseableHttpClient httpClient;
+
+	/**
+	 * Create a transport with one connection per concurrent request slot.
+	 */
+	public PooledHttpTransport() {
+		this(AbstractOssIndexRequest.MAX_CONCURRENT_REQUESTS);
+	}
+
+	/** Create a transport
+	 * 
+	 * @param maxConnections Maximum number of open connections to the server
+	 */
+	public PooledHttpTransport(int maxConnections) {
+		if (maxConnections < 1) {
+			throw new IllegalArgumentException("maxConnections must be at least 1");
+		}
+		httpClient = HttpClients.custom()
+				.useSystemProperties()
+				.setMaxConnTotal(maxConnections)
+				.setMaxConnPerRoute(maxConnections)
+				.build();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.ossindex.common.ITransport#post(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public String post(String url, String data) throws IOException {
+		return ApacheHttpTransport.post(httpClient, url, data);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+}
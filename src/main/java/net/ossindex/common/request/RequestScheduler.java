@@ -0,0 +1,160 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common.request;
+
+import java.util.LinkedList;
+
+import net.ossindex.common.RequestPriority;
+
+/** Weighted fair scheduler that limits the number of concurrent requests
+ * to the server. Each priority has its own queue, and slots are handed out
+ * using stride scheduling: every lane advances its pass value by the
+ * inverse of its weight when it is served, and the waiting lane with the
+ * lowest pass goes next.
+ * 
+ * @author Ken Duck
+ *
+ */
+class RequestScheduler {
+
+	private static final long STRIDE_BASE = 1L << 20;
+
+	private final int maxConcurrent;
+	private final Lane[] lanes;
+
+	private int active;
+
+	/**
+	 * Pass value of the most recently served lane. Lanes that were idle are
+	 * brought forward to this so they cannot build up credit while empty.
+	 */
+	private long virtualTime;
+
+	/** Create a scheduler
+	 * 
+	 * @param maxConcurrent Maximum number of requests in flight at once
+	 */
+	RequestScheduler(int maxConcurrent) {
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException("maxConcurrent must be at least 1");
+		}
+		this.maxConcurrent = maxConcurrent;
+		RequestPriority[] priorities = RequestPriority.values();
+		lanes = new Lane[priorities.length];
+		for (int i = 0; i < priorities.length; i++) {
+			lanes[i] = new Lane(STRIDE_BASE / priorities[i].getWeight());
+		}
+	}
+
+	/** Wait for a dispatch slot. Every successful call must be matched with
+	 * a call to release().
+	 * 
+	 * @param priority Priority of the request
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	synchronized void acquire(RequestPriority priority) throws InterruptedException {
+		Lane lane = lanes[priority.ordinal()];
+		if (lane.waiting.isEmpty() && lane.pass < virtualTime) {
+			lane.pass = virtualTime;
+		}
+		Ticket ticket = new Ticket();
+		lane.waiting.add(ticket);
+		dispatch();
+		try {
+			while (!ticket.granted) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			if (ticket.granted) {
+				release();
+			} else {
+				lane.waiting.remove(ticket);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Return a slot obtained through acquire().
+	 */
+	synchronized void release() {
+		active--;
+		dispatch();
+	}
+
+	/** Get the number of requests waiting for a slot.
+	 * 
+	 * @return Number of waiting requests
+	 */
+	synchronized int getQueueLength() {
+		int count = 0;
+		for (Lane lane : lanes) {
+			count += lane.waiting.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Hand out free slots to waiting requests. Ties go to the higher priority.
+	 */
+	private void dispatch() {
+		boolean granted = false;
+		while (active < maxConcurrent) {
+			Lane next = null;
+			for (Lane lane : lanes) {
+				if (!lane.waiting.isEmpty() && (next == null || lane.pass < next.pass)) {
+					next = lane;
+				}
+			}
+			if (next == null) {
+				break;
+			}
+			next.waiting.removeFirst().granted = true;
+			virtualTime = next.pass;
+			next.pass += next.stride;
+			active++;
+			granted = true;
+		}
+		if (granted) {
+			notifyAll();
+		}
+	}
+
+	private static class Lane {
+		private final long stride;
+		private final LinkedList<Ticket> waiting = new LinkedList<Ticket>();
+		private long pass;
+
+		Lane(long stride) {
+			this.stride = stride;
+		}
+	}
+
+	private static class Ticket {
+		private boolean granted;
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+/** Compares the streaming descriptor adapters with Gson's reflective
+ * adapters. This is not run as part of the test suite. After building the
+ * test classes, run it with the test classpath:
+ * 
+ *   java -cp target/classes:target/test-classes:&lt;gson jar&gt; \
+ *       net.ossindex.common.DescriptorTypeAdapterBenchmark reflective|streaming [cold]
+ * 
+ * With "cold" it reports the time from creating the Gson instance to the
+ * end of the first parse and serialize, which is only meaningful in a fresh
+ * JVM. Otherwise it reports the best of several parses of a large response
+ * after warming up.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class DescriptorTypeAdapterBenchmark {
+
+	private static final Type LIST_TYPE = new TypeToken<List<PackageDescriptor>>() {}.getType();
+
+	private static final int PACKAGES = 20000;
+	private static final int VULNERABILITIES_PER_PACKAGE = 3;
+	private static final int ITERATIONS = 15;
+
+	/** Run the benchmark
+	 * 
+	 * @param args Adapter type, and optionally "cold"
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1 || !(args[0].equals("reflective") || args[0].equals("streaming"))) {
+			System.err.println("Usage: DescriptorTypeAdapterBenchmark reflective|streaming [cold]");
+			System.exit(1);
+		}
+		boolean streaming = args[0].equals("streaming");
+		boolean cold = args.length > 1 && args[1].equals("cold");
+
+		String small = buildResponse(1);
+		long start = System.nanoTime();
+		Gson gson = createGson(streaming);
+		List<PackageDescriptor> pkgs = gson.fromJson(small, LIST_TYPE);
+		gson.toJson(pkgs);
+		long first = System.nanoTime() - start;
+		if (cold) {
+			System.out.printf("%s: first call %.2f ms%n", args[0], first / 1e6);
+			return;
+		}
+
+		String large = buildResponse(PACKAGES);
+		for (int i = 0; i < ITERATIONS; i++) {
+			gson.fromJson(large, LIST_TYPE);
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ITERATIONS; i++) {
+			start = System.nanoTime();
+			gson.fromJson(large, LIST_TYPE);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.printf("%s: parse %d packages (%d KB) best %.1f ms%n",
+				args[0], PACKAGES, large.length() / 1024, best / 1e6);
+	}
+
+	private static Gson createGson(boolean streaming) {
+		GsonBuilder builder = new GsonBuilder().disableHtmlEscaping();
+		if (streaming) {
+			builder.registerTypeAdapterFactory(new DescriptorTypeAdapterFactory());
+		}
+		return builder.create();
+	}
+
+	/**
+	 * Build a response similar to the server's, including an unknown field.
+	 */
+	private static String buildResponse(int packages) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < packages; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i)
+				.append(",\"pm\":\"maven\",\"group\":\"org.example\",\"name\":\"pkg").append(i)
+				.append("\",\"version\":\"1.0.").append(i)
+				.append("\",\"vulnerability-total\":3,\"vulnerability-matches\":2,\"vulnerabilities\":[");
+			for (int v = 0; v < VULNERABILITIES_PER_PACKAGE; v++) {
+				if (v > 0) {
+					sb.append(',');
+				}
+				sb.append("{\"id\":").append(i * 10 + v)
+					.append(",\"title\":\"Some vulnerability title\"")
+					.append(",\"description\":\"A longer description of the vulnerability.\"")
+					.append(",\"versions\":[\"<1.2.3\",\">=2.0.0 <2.0.5\"]")
+					.append(",\"references\":[\"https://example.com/a\",\"https://example.com/b\"]")
+					.append(",\"published\":1516310400000,\"updated\":1517875200000")
+					.append(",\"cve\":\"CVE-2018-").append(i).append("\"")
+					.append(",\"unknown\":{\"x\":[1,2,3]}}");
+			}
+			sb.append("]}");
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+/** Check that the streaming adapters match Gson's reflective adapters.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class DescriptorTypeAdapterFactoryTest {
+
+	private static final Type LIST_TYPE = new TypeToken<List<PackageDescriptor>>() {}.getType();
+
+	private static final String RESPONSE = "[{"
+			+ "\"id\":8396559329,\"pm\":\"maven\",\"group\":\"org.webjars.bower\",\"name\":\"jQuery\",\"version\":\"1.9\","
+			+ "\"vulnerability-total\":3,\"vulnerability-matches\":1,"
+			+ "\"vulnerabilities\":[{"
+			+ "\"id\":8402281444,\"title\":\"[CVE-2015-9251] Cross-site Scripting\","
+			+ "\"description\":\"<b>jQuery</b> before 3.0.0 is vulnerable to XSS attacks.\","
+			+ "\"versions\":[\"<3.0.0\",null],\"references\":[\"https://github.com/jquery/jquery/issues/2432\"],"
+			+ "\"published\":1516310400000,\"updated\":1517875200000,\"cve\":\"CVE-2015-9251\""
+			+ "},null]},"
+			+ "{\"pm\":\"npm\",\"name\":\"left-pad\",\"version\":null,\"vulnerabilities\":null},"
+			+ "null]";
+
+	private final Gson reflective = new GsonBuilder().disableHtmlEscaping().create();
+	private final Gson streaming = new GsonBuilder()
+			.disableHtmlEscaping()
+			.registerTypeAdapterFactory(new DescriptorTypeAdapterFactory())
+			.create();
+
+	/**
+	 * Request data is serialized identically.
+	 */
+	@Test
+	public void writeMatchesReflective() {
+		List<PackageDescriptor> request = Arrays.asList(
+				new PackageDescriptor("maven", "org.apache.commons", "commons-dbcp2", "2.1.1"),
+				new PackageDescriptor("npm", null, "left-pad", "1.3.0"));
+		assertEquals(reflective.toJson(request), streaming.toJson(request));
+	}
+
+	/**
+	 * Responses are parsed identically.
+	 */
+	@Test
+	public void readMatchesReflective() {
+		List<PackageDescriptor> expected = reflective.fromJson(RESPONSE, LIST_TYPE);
+		List<PackageDescriptor> actual = streaming.fromJson(RESPONSE, LIST_TYPE);
+		assertEquals(reflective.toJson(expected), reflective.toJson(actual));
+		assertEquals(reflective.toJson(expected), streaming.toJson(actual));
+		assertNull(actual.get(2));
+	}
+
+	/**
+	 * Fields the model does not know about are skipped.
+	 */
+	@Test
+	public void unknownFieldsSkipped() {
+		String json = "[{\"name\":\"jQuery\",\"extra\":{\"nested\":[1,2,{\"a\":\"b\"}]},"
+				+ "\"vulnerabilities\":[{\"id\":1,\"severity\":7.5,\"tags\":[\"xss\"],\"cve\":\"CVE-2015-9251\"}],"
+				+ "\"version\":\"1.9\"}]";
+		List<PackageDescriptor> pkgs = streaming.fromJson(json, LIST_TYPE);
+		PackageDescriptor pkg = pkgs.get(0);
+		assertEquals("jQuery", pkg.getName());
+		assertEquals("1.9", pkg.getVersion());
+		assertEquals(1, pkg.getVulnerabilities().get(0).getId());
+		assertEquals("CVE-2015-9251", pkg.getVulnerabilities().get(0).getCve());
+	}
+
+	/**
+	 * Malformed numbers fail with the same exception as the reflective path.
+	 */
+	@Test
+	public void malformedNumbersMatchReflective() {
+		String[] inputs = {
+				"[{\"vulnerability-total\":\"abc\"}]",
+				"[{\"id\":\"abc\"}]",
+				"[{\"vulnerabilities\":[{\"published\":\"abc\"}]}]"
+		};
+		for (String json : inputs) {
+			assertEquals(json, JsonSyntaxException.class, parseFailure(reflective, json).getClass());
+			assertEquals(json, JsonSyntaxException.class, parseFailure(streaming, json).getClass());
+		}
+	}
+
+	private static RuntimeException parseFailure(Gson gson, String json) {
+		try {
+			gson.fromJson(json, LIST_TYPE);
+		} catch (RuntimeException e) {
+			return e;
+		}
+		fail("Expected parse failure for " + json);
+		return null;
+	}
+}
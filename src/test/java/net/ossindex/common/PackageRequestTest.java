@@ -26,18 +26,33 @@
  */
 package net.ossindex.common;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
 import org.junit.Test;
 
+import net.ossindex.common.request.FakeTransport;
+
 /** Test the package requests.
  * 
  * @author Ken Duck
  *
  */
 public class PackageRequestTest {
+
+	private static final String JQUERY_RESPONSE = "[{"
+			+ "\"id\":8396559329,\"pm\":\"maven\",\"group\":\"org.webjars.bower\",\"name\":\"jQuery\",\"version\":\"1.9\","
+			+ "\"vulnerability-total\":3,\"vulnerability-matches\":1,"
+			+ "\"vulnerabilities\":[{"
+			+ "\"id\":8402281444,\"title\":\"[CVE-2015-9251] Cross-site Scripting\","
+			+ "\"description\":\"jQuery before 3.0.0 is vulnerable to XSS attacks.\","
+			+ "\"versions\":[\"<3.0.0\"],\"references\":[\"https://github.com/jquery/jquery/issues/2432\"],"
+			+ "\"published\":1516310400000,\"updated\":1517875200000,\"cve\":\"CVE-2015-9251\""
+			+ "}]}]";
 	
 	/** Test a single package request
 	 * 
@@ -45,20 +60,67 @@ public class PackageRequestTest {
 	 */
 	@Test
 	public void singlePackageRequest() throws IOException {
-		IPackageRequest req = OssIndexApi.createPackageRequest();
+		FakeTransport transport = new FakeTransport(JQUERY_RESPONSE);
+		IPackageRequest req = OssIndexApi.createPackageRequest(transport);
 		req.add("maven", "org.webjars.bower", "jQuery", "1.9");
 		Collection<PackageDescriptor> packages = req.run();
-		System.err.println("RESPONSE:");
-		if (packages != null) {
-			for (PackageDescriptor pkg : packages) {
-				System.err.println("  " + pkg);
-				List<VulnerabilityDescriptor> vulns = pkg.getVulnerabilities();
-				if (vulns != null) {
-					for (VulnerabilityDescriptor vuln : vulns) {
-						System.err.println("    - " + vuln);
-					}
-				}
-			}
+
+		assertEquals(1, transport.getRequests().size());
+		assertEquals("https://ossindex.net/v2.0/package", transport.getUrls().get(0));
+		assertTrue(transport.getRequests().get(0).contains("\"name\":\"jQuery\""));
+
+		assertEquals(1, packages.size());
+		PackageDescriptor pkg = packages.iterator().next();
+		assertEquals(new PackageDescriptor("maven", "org.webjars.bower", "jQuery", "1.9"), pkg);
+		assertEquals(3, pkg.getVulnerabilityTotal());
+		assertEquals(1, pkg.getVulnerabilityMatches());
+		List<VulnerabilityDescriptor> vulns = pkg.getVulnerabilities();
+		assertEquals(1, vulns.size());
+		VulnerabilityDescriptor vuln = vulns.get(0);
+		assertEquals(8402281444L, vuln.getId());
+		assertTrue(vuln.isCve());
+		assertEquals(1516310400000L, vuln.getPublished());
+		assertEquals("<3.0.0", vuln.getVersions().get(0));
+	}
+
+	/** Bulk requests are sent in chunks, and the results are combined.
+	 * 
+	 * @throws IOException On request failure
+	 */
+	@Test
+	public void bulkPackageRequest() throws IOException {
+		FakeTransport transport = new FakeTransport();
+		IPackageRequest req = OssIndexApi.createPackageRequest(transport);
+		req.setPriority(RequestPriority.BULK);
+		int count = RequestPriority.BULK.getChunkSize() * 2 + 1;
+		for (int i = 0; i < count; i++) {
+			req.add("npm", null, "pkg" + i, "1.0.0");
 		}
+		Collection<PackageDescriptor> packages = req.run();
+
+		assertEquals(3, transport.getRequests().size());
+		assertEquals(count, packages.size());
+		int i = 0;
+		for (PackageDescriptor pkg : packages) {
+			assertEquals("pkg" + i++, pkg.getName());
+		}
+	}
+
+	/** Very large requests at the default priority are also chunked.
+	 * 
+	 * @throws IOException On request failure
+	 */
+	@Test
+	public void largeNormalPackageRequest() throws IOException {
+		FakeTransport transport = new FakeTransport();
+		IPackageRequest req = OssIndexApi.createPackageRequest(transport);
+		int count = RequestPriority.NORMAL.getChunkSize() + 1;
+		for (int i = 0; i < count; i++) {
+			req.add("npm", null, "pkg" + i, "1.0.0");
+		}
+		Collection<PackageDescriptor> packages = req.run();
+
+		assertEquals(2, transport.getRequests().size());
+		assertEquals(count, packages.size());
 	}
 }
@@ -0,0 +1,195 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+/** Test the scan result index.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class ScanResultIndexTest {
+
+	private static final String RESULTS = "["
+			+ "{\"pm\":\"maven\",\"group\":\"org.webjars.bower\",\"name\":\"jQuery\",\"version\":\"1.9\",\"vulnerabilities\":["
+			+ "  {\"id\":1,\"title\":\"XSS\",\"published\":1000,\"updated\":5000,\"cve\":\"CVE-2015-9251\"},"
+			+ "  {\"id\":2,\"title\":\"Prototype pollution\",\"published\":3000,\"updated\":3000}]},"
+			+ "{\"pm\":\"npm\",\"name\":\"jquery\",\"version\":\"1.9.0\",\"vulnerabilities\":["
+			+ "  {\"id\":1,\"title\":\"XSS\",\"published\":1000,\"updated\":5000,\"cve\":\"CVE-2015-9251\"},"
+			+ "  {\"id\":3,\"title\":\"DoS\",\"published\":2000,\"updated\":4000,\"cve\":\"CVE-2016-10707\"}]},"
+			+ "{\"pm\":\"npm\",\"name\":\"left-pad\",\"version\":\"1.3.0\"}"
+			+ "]";
+
+	private List<PackageDescriptor> packages;
+	private ScanResultIndex index;
+
+	/**
+	 * Parse the results and build the index
+	 */
+	@Before
+	public void buildIndex() {
+		Type listType = new TypeToken<List<PackageDescriptor>>() {}.getType();
+		packages = new Gson().fromJson(RESULTS, listType);
+		index = new ScanResultIndex(packages);
+	}
+
+	/**
+	 * Vulnerabilities shared between packages are indexed once.
+	 */
+	@Test
+	public void lookupById() {
+		assertEquals(3, index.size());
+		assertEquals("DoS", index.getVulnerability(3).getTitle());
+		assertNull(index.getVulnerability(4));
+		List<PackageDescriptor> affected = index.getAffectedPackages(1);
+		assertEquals(2, affected.size());
+		assertEquals(packages.get(0), affected.get(0));
+		assertEquals(packages.get(1), affected.get(1));
+		assertTrue(index.getAffectedPackages(4).isEmpty());
+	}
+
+	/**
+	 * Look up vulnerabilities by CVE
+	 */
+	@Test
+	public void lookupByCve() {
+		List<VulnerabilityDescriptor> vulns = index.getVulnerabilitiesByCve("CVE-2015-9251");
+		assertEquals(1, vulns.size());
+		assertEquals(1, vulns.get(0).getId());
+		assertEquals(1, index.getAffectedPackagesByCve("CVE-2016-10707").size());
+		assertTrue(index.getVulnerabilitiesByCve("CVE-2000-0001").isEmpty());
+		assertTrue(index.getAffectedPackagesByCve("CVE-2000-0001").isEmpty());
+	}
+
+	/**
+	 * Time range queries include the start and exclude the end.
+	 */
+	@Test
+	public void lookupByTime() {
+		List<VulnerabilityDescriptor> published = index.getPublishedBetween(1000, 3000);
+		assertEquals(2, published.size());
+		assertEquals(1, published.get(0).getId());
+		assertEquals(3, published.get(1).getId());
+
+		List<VulnerabilityDescriptor> updated = index.getUpdatedBetween(4000, Long.MAX_VALUE);
+		assertEquals(2, updated.size());
+		assertEquals(3, updated.get(0).getId());
+		assertEquals(1, updated.get(1).getId());
+
+		assertTrue(index.getUpdatedBetween(6000, 7000).isEmpty());
+	}
+
+	/**
+	 * Look up packages and vulnerabilities by package manager
+	 */
+	@Test
+	public void lookupByPackageManager() {
+		assertEquals(2, index.getPackages("npm").size());
+		assertEquals(1, index.getPackages("maven").size());
+		assertTrue(index.getPackages("pypi").isEmpty());
+
+		List<VulnerabilityDescriptor> npm = index.getVulnerabilities("npm");
+		assertEquals(2, npm.size());
+		assertEquals(1, npm.get(0).getId());
+		assertEquals(3, npm.get(1).getId());
+	}
+
+	/**
+	 * Null packages and vulnerabilities in the results are ignored.
+	 */
+	@Test
+	public void nullEntriesSkipped() {
+		Type listType = new TypeToken<List<PackageDescriptor>>() {}.getType();
+		List<PackageDescriptor> results = new Gson().fromJson(
+				"[{\"pm\":\"npm\",\"name\":\"jquery\",\"vulnerabilities\":[null,{\"id\":1,\"updated\":5000}]},null]", listType);
+		ScanResultIndex nullIndex = new ScanResultIndex(results);
+		assertEquals(1, nullIndex.size());
+		assertEquals(1, nullIndex.getAffectedPackages(1).size());
+		assertEquals(1, nullIndex.getPackages("npm").size());
+		assertEquals(1, nullIndex.getUpdatedBetween(0, Long.MAX_VALUE).size());
+	}
+
+	/**
+	 * Different vulnerability IDs may carry the same CVE.
+	 */
+	@Test
+	public void sharedCve() {
+		Type listType = new TypeToken<List<PackageDescriptor>>() {}.getType();
+		List<PackageDescriptor> results = new Gson().fromJson("["
+				+ "{\"pm\":\"npm\",\"name\":\"a\",\"vulnerabilities\":[{\"id\":1,\"cve\":\"CVE-1\"}]},"
+				+ "{\"pm\":\"maven\",\"name\":\"b\",\"vulnerabilities\":[{\"id\":2,\"cve\":\"CVE-1\"}]},"
+				+ "{\"pm\":\"maven\",\"name\":\"c\",\"vulnerabilities\":[{\"id\":2,\"cve\":\"CVE-1\"},{\"id\":1,\"cve\":\"CVE-1\"}]}"
+				+ "]", listType);
+		ScanResultIndex cveIndex = new ScanResultIndex(results);
+
+		List<VulnerabilityDescriptor> vulns = cveIndex.getVulnerabilitiesByCve("CVE-1");
+		assertEquals(2, vulns.size());
+		assertEquals(1, vulns.get(0).getId());
+		assertEquals(2, vulns.get(1).getId());
+
+		List<PackageDescriptor> affected = cveIndex.getAffectedPackagesByCve("CVE-1");
+		assertEquals(3, affected.size());
+		assertEquals("a", affected.get(0).getName());
+		assertEquals("c", affected.get(1).getName());
+		assertEquals("b", affected.get(2).getName());
+	}
+
+	/**
+	 * Vulnerabilities without an ID are kept separate, and are not found by ID.
+	 */
+	@Test
+	public void missingIdsKeptSeparate() {
+		Type listType = new TypeToken<List<PackageDescriptor>>() {}.getType();
+		List<PackageDescriptor> results = new Gson().fromJson("["
+				+ "{\"pm\":\"npm\",\"name\":\"a\",\"vulnerabilities\":["
+				+ "  {\"title\":\"First\",\"published\":1000,\"cve\":\"CVE-1\"},"
+				+ "  {\"title\":\"Second\",\"published\":2000,\"cve\":\"CVE-2\"}]}"
+				+ "]", listType);
+		ScanResultIndex noIdIndex = new ScanResultIndex(results);
+
+		assertEquals(2, noIdIndex.size());
+		assertNull(noIdIndex.getVulnerability(0));
+		assertTrue(noIdIndex.getAffectedPackages(0).isEmpty());
+		assertEquals("First", noIdIndex.getVulnerabilitiesByCve("CVE-1").get(0).getTitle());
+		assertEquals("Second", noIdIndex.getVulnerabilitiesByCve("CVE-2").get(0).getTitle());
+		assertEquals(1, noIdIndex.getAffectedPackagesByCve("CVE-2").size());
+		assertEquals(2, noIdIndex.getPublishedBetween(0, Long.MAX_VALUE).size());
+		assertEquals(2, noIdIndex.getVulnerabilities("npm").size());
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common.request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.ossindex.common.ITransport;
+
+/** In-process transport for tests, so they do not depend on the live
+ * server. Records every request, and either returns a canned response or
+ * echoes the request data back.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class FakeTransport implements ITransport {
+
+	private final String response;
+	private final List<String> urls = Collections.synchronizedList(new ArrayList<String>());
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+	/**
+	 * Create a transport that echoes the request data back as the response.
+	 */
+	public FakeTransport() {
+		this(null);
+	}
+
+	/** Create a transport that returns the given response to every request.
+	 * 
+	 * @param response JSON response
+	 */
+	public FakeTransport(String response) {
+		this.response = response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.ossindex.common.ITransport#post(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public String post(String url, String data) throws IOException {
+		urls.add(url);
+		requests.add(data);
+		if (response != null) {
+			return response;
+		}
+		return data;
+	}
+
+	/** Get the URLs requested so far
+	 * 
+	 * @return The request URLs
+	 */
+	public List<String> getUrls() {
+		return urls;
+	}
+
+	/** Get the data posted so far
+	 * 
+	 * @return The request data
+	 */
+	public List<String> getRequests() {
+		return requests;
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import net.ossindex.common.ITransport;
+
+/** Test the HTTP transports against a local server.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class HttpTransportTest {
+
+	private static final String UTF8_RESPONSE = "[{\"title\":\"Vör – 日本\"}]";
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private String baseUrl;
+
+	/** Ports used by clients of the echo handler */
+	private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+	/** Start the local server
+	 * 
+	 * @throws IOException On server start failure
+	 */
+	@Before
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/echo", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				clientPorts.add(exchange.getRemoteAddress().getPort());
+				respond(exchange, 200, readBody(exchange));
+			}
+		});
+		server.createContext("/utf8", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				readBody(exchange);
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				respond(exchange, 200, UTF8_RESPONSE.getBytes("UTF-8"));
+			}
+		});
+		server.createContext("/error", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				readBody(exchange);
+				respond(exchange, 503, "unavailable".getBytes("UTF-8"));
+			}
+		});
+		executor = Executors.newFixedThreadPool(8);
+		server.setExecutor(executor);
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+	}
+
+	/**
+	 * Stop the local server
+	 */
+	@After
+	public void stopServer() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/** The default transport returns the response body.
+	 * 
+	 * @throws IOException On request failure
+	 */
+	@Test
+	public void apacheRoundTrip() throws IOException {
+		ITransport transport = new ApacheHttpTransport();
+		assertEquals("[{\"name\":\"jQuery\"}]", transport.post(baseUrl + "echo", "[{\"name\":\"jQuery\"}]"));
+		assertEquals(UTF8_RESPONSE, transport.post(baseUrl + "utf8", "[]"));
+	}
+
+	/** Non 2xx responses are reported as ConnectExceptions.
+	 * 
+	 * @throws IOException On unexpected request failure
+	 */
+	@Test
+	public void apacheErrorStatus() throws IOException {
+		assertErrorStatus(new ApacheHttpTransport());
+	}
+
+	/** The pooled transport returns the response body.
+	 * 
+	 * @throws IOException On request failure
+	 */
+	@Test
+	public void pooledRoundTrip() throws IOException {
+		PooledHttpTransport transport = new PooledHttpTransport(2);
+		try {
+			assertEquals("[{\"name\":\"jQuery\"}]", transport.post(baseUrl + "echo", "[{\"name\":\"jQuery\"}]"));
+			assertEquals(UTF8_RESPONSE, transport.post(baseUrl + "utf8", "[]"));
+		} finally {
+			transport.close();
+		}
+	}
+
+	/** Non 2xx responses are reported as ConnectExceptions, and the
+	 * connection remains usable afterwards.
+	 * 
+	 * @throws IOException On unexpected request failure
+	 */
+	@Test
+	public void pooledErrorStatus() throws IOException {
+		PooledHttpTransport transport = new PooledHttpTransport(1);
+		try {
+			assertErrorStatus(transport);
+			assertEquals("[]", transport.post(baseUrl + "echo", "[]"));
+		} finally {
+			transport.close();
+		}
+	}
+
+	/** Concurrent posts share one transport, and reuse its connections.
+	 * 
+	 * @throws Exception On request failure
+	 */
+	@Test(timeout = 30000)
+	public void pooledConcurrentPosts() throws Exception {
+		final PooledHttpTransport transport = new PooledHttpTransport(2);
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		List<Thread> threads = new ArrayList<Thread>();
+		try {
+			for (int i = 0; i < 8; i++) {
+				final String data = "[{\"name\":\"pkg" + i + "\"}]";
+				Thread thread = new Thread() {
+					@Override
+					public void run() {
+						try {
+							for (int j = 0; j < 5; j++) {
+								assertEquals(data, transport.post(baseUrl + "echo", data));
+							}
+						} catch (Throwable e) {
+							failures.add(e);
+						}
+					}
+				};
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join(20000);
+				assertFalse(thread.isAlive());
+			}
+		} finally {
+			transport.close();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		// 40 requests over a pool of at most 2 connections
+		assertTrue(clientPorts.toString(), clientPorts.size() <= 2);
+	}
+
+	/** Requests fail once the transport is closed.
+	 * 
+	 * @throws IOException On unexpected request failure
+	 */
+	@Test
+	public void pooledClose() throws IOException {
+		PooledHttpTransport transport = new PooledHttpTransport(1);
+		assertEquals("[]", transport.post(baseUrl + "echo", "[]"));
+		transport.close();
+		try {
+			transport.post(baseUrl + "echo", "[]");
+			fail("Expected closed transport to reject requests");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+	}
+
+	private void assertErrorStatus(ITransport transport) throws IOException {
+		try {
+			transport.post(baseUrl + "error", "[]");
+			fail("Expected ConnectException");
+		} catch (ConnectException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith("(503)"));
+		}
+	}
+
+	private static byte[] readBody(HttpExchange exchange) throws IOException {
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int count;
+		while ((count = in.read(buffer)) > 0) {
+			out.write(buffer, 0, count);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(code, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+}
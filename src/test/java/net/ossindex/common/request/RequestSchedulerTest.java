@@ -0,0 +1,126 @@
+/**
+ *	Copyright (c) 2017 Vör Security Inc.
+ *	All rights reserved.
+ *	
+ *	Redistribution and use in source and binary forms, with or without
+ *	modification, are permitted provided that the following conditions are met:
+ *	    * Redistributions of source code must retain the above copyright
+ *	      notice, this list of conditions and the following disclaimer.
+ *	    * Redistributions in binary form must reproduce the above copyright
+ *	      notice, this list of conditions and the following disclaimer in the
+ *	      documentation and/or other materials provided with the distribution.
+ *	    * Neither the name of the <organization> nor the
+ *	      names of its contributors may be used to endorse or promote products
+ *	      derived from this software without specific prior written permission.
+ *	
+ *	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *	DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ *	DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ossindex.common.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ossindex.common.RequestPriority;
+
+/** Test the request scheduler.
+ * 
+ * @author Ken Duck
+ *
+ */
+public class RequestSchedulerTest {
+
+	/** An interactive request should be dispatched ahead of bulk requests
+	 * that were queued before it.
+	 * 
+	 * @throws InterruptedException On test interruption
+	 */
+	@Test
+	public void interactiveBypassesBulk() throws InterruptedException {
+		RequestScheduler scheduler = new RequestScheduler(1);
+		List<RequestPriority> order = Collections.synchronizedList(new ArrayList<RequestPriority>());
+
+		scheduler.acquire(RequestPriority.NORMAL);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 3; i++) {
+			threads.add(startRequest(scheduler, RequestPriority.BULK, order));
+		}
+		waitForQueue(scheduler, 3);
+		threads.add(startRequest(scheduler, RequestPriority.INTERACTIVE, order));
+		waitForQueue(scheduler, 4);
+		scheduler.release();
+
+		for (Thread thread : threads) {
+			thread.join(10000);
+			assertFalse(thread.isAlive());
+		}
+		assertEquals(4, order.size());
+		assertEquals(RequestPriority.INTERACTIVE, order.get(0));
+	}
+
+	/** An interrupted waiter must give up its place in the queue.
+	 * 
+	 * @throws InterruptedException On test interruption
+	 */
+	@Test
+	public void interruptedWaiterIsRemoved() throws InterruptedException {
+		RequestScheduler scheduler = new RequestScheduler(1);
+		List<RequestPriority> order = Collections.synchronizedList(new ArrayList<RequestPriority>());
+
+		scheduler.acquire(RequestPriority.NORMAL);
+		Thread thread = startRequest(scheduler, RequestPriority.BULK, order);
+		waitForQueue(scheduler, 1);
+		thread.interrupt();
+		thread.join(10000);
+		assertFalse(thread.isAlive());
+		assertEquals(0, scheduler.getQueueLength());
+		scheduler.release();
+
+		// The slot is free again
+		scheduler.acquire(RequestPriority.BULK);
+		scheduler.release();
+		assertEquals(0, order.size());
+	}
+
+	private static Thread startRequest(final RequestScheduler scheduler, final RequestPriority priority, final List<RequestPriority> order) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					scheduler.acquire(priority);
+				} catch (InterruptedException e) {
+					return;
+				}
+				order.add(priority);
+				scheduler.release();
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	private static void waitForQueue(RequestScheduler scheduler, int length) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (scheduler.getQueueLength() < length) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Timed out waiting for " + length + " queued requests");
+			}
+			Thread.sleep(10);
+		}
+	}
+}